@@ -0,0 +1,27 @@
+#!/bin/sh
+# Regenerates the AppCDS class list shipped at META-INF/keyauth/keyauth.classlist.
+# Runs StartupBenchmark from src/test/java with -XX:DumpLoadedClassList, then
+# strips the benchmark and its local http server since they aren't part of the lib.
+# Run again whenever the classes loaded before the first request change.
+set -e
+cd "$(dirname "$0")"
+
+mvn -B -q test-compile
+mvn -B -q dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+
+java -XX:DumpLoadedClassList=target/keyauth.classlist.raw -cp "target/test-classes:target/classes:$(cat target/classpath.txt)" \
+	cafe.kagu.keyauth.StartupBenchmark optimized
+
+out=src/main/resources/META-INF/keyauth/keyauth.classlist
+{
+	echo "# AppCDS class list for the keyauth lib, see the README for how to use it"
+	echo "# Generated by generate-classlist.sh on JDK $(java -XshowSettings:properties -version 2>&1 | sed -n 's/^ *java.version = //p'), do not edit by hand"
+	# Proxy classes are numbered in the order they're made and jdk event classes are
+	# never archived, so neither can be preloaded
+	grep -v -E -e '^#' -e 'StartupBenchmark' -e '^(@lambda-proxy )?(com/)?sun/net/httpserver/' -e '\$Proxy[0-9]' -e '^jdk/internal/event/' \
+		target/keyauth.classlist.raw > target/keyauth.classlist.filtered
+	# Sorted so the list only changes when the loaded classes do, classes before the @ lines that use them
+	grep -v '^@' target/keyauth.classlist.filtered | LC_ALL=C sort -u
+	grep '^@' target/keyauth.classlist.filtered | LC_ALL=C sort -u
+} > "$out"
+echo "Wrote $(grep -vc '^#' "$out") classes to $out"
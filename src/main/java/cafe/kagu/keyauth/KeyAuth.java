@@ -3,7 +3,6 @@
  */
 package cafe.kagu.keyauth;
 
-import java.awt.Desktop;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -12,23 +11,37 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.apache.commons.codec.binary.Hex;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import cafe.kagu.keyauth.profiling.AuthPhase;
+import cafe.kagu.keyauth.profiling.PhaseRecorder;
+import cafe.kagu.keyauth.profiling.PhaseRecorders;
+import cafe.kagu.keyauth.profiling.PhaseRecording;
+import cafe.kagu.keyauth.state.AuthState;
+import cafe.kagu.keyauth.state.AuthStatePublisher;
+import cafe.kagu.keyauth.transport.Form;
+import cafe.kagu.keyauth.transport.Transport;
+import cafe.kagu.keyauth.transport.TransportResponse;
+import cafe.kagu.keyauth.transport.Transports;
+import cafe.kagu.keyauth.utils.BrowserUtils;
 import cafe.kagu.keyauth.utils.HashingUtils;
 import cafe.kagu.keyauth.utils.HwidUtils;
 import cafe.kagu.keyauth.utils.ResponseHandler;
-import okhttp3.Call;
-import okhttp3.FormBody;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import cafe.kagu.keyauth.utils.VariableCache;
+import cafe.kagu.keyauth.utils.VariablesHandler;
 
 /**
  * @author DistastefulBannock This class is used to store data, make requests,
@@ -56,17 +69,36 @@ public class KeyAuth {
 	 * @param version   Application version
 	 */
 	public KeyAuth(String ownerId, String appName, String appSecret, String version) {
+		this(ownerId, appName, appSecret, version, Transports.getDefault());
+	}
+
+	/**
+	 * @param ownerId   You can find out the owner id in the profile settings on
+	 *                  keyauth.win
+	 * @param appName   Application name
+	 * @param appSecret The app secret
+	 * @param version   Application version
+	 * @param transport The transport used to send requests to the auth server
+	 */
+	public KeyAuth(String ownerId, String appName, String appSecret, String version, Transport transport) {
 		this.ownerId = ownerId;
 		this.appName = appName;
 		this.appSecret = appSecret;
 		this.version = version;
+		this.transport = transport;
 	}
 
-	private String ownerId, appName, appSecret, version, session = null;
+	private String ownerId, appName, appSecret, version;
+	private volatile String session = null;
 	private final String guid = getRandomGuid();
-	private boolean loggedIn = false;
+	private volatile boolean loggedIn = false;
+	private boolean startupOptimized = false;
 	public static final String KEYAUTH_ENDPOINT = "https://keyauth.win/api/1.2/";
-	private final OkHttpClient client = new OkHttpClient();
+	private final Transport transport;
+	private final VariableCache variableCache = new VariableCache(5, TimeUnit.MINUTES);
+	private final VariableCache userVariableCache = new VariableCache(5, TimeUnit.MINUTES);
+	private final PhaseRecorder recorder = PhaseRecorders.getDefault();
+	private final AuthStatePublisher authStates = new AuthStatePublisher();
 
 	/**
 	 * Initializes keyauth
@@ -87,20 +119,16 @@ public class KeyAuth {
 		}
 
 		// Create body for request
-		FormBody formBody = new FormBody.Builder().add("type", "init").add("ver", version).add("name", appName)
-				.add("ownerid", ownerId).add("enckey", guid).build();
+		Form form = buildRequest("init", () -> new Form.Builder().add("type", "init").add("ver", version)
+				.add("name", appName).add("ownerid", ownerId).add("enckey", guid).build());
 
-		// Create and send the request
-		Request request = new Request.Builder().url(KEYAUTH_ENDPOINT).post(formBody)
-				.addHeader("Content-Type", "application/x-www-form-urlencoded").build();
-
-		Call call = client.newCall(request);
-		Response response = null;
+		// Send the request
+		PhaseRecording networkRecording = recorder.begin(AuthPhase.NETWORK, "init");
+		TransportResponse response = null;
 		try {
-			response = call.execute();
+			response = transport.post(KEYAUTH_ENDPOINT, form);
 		} catch (IOException e) {
-			if (response != null)
-				response.close();
+			networkRecording.end("IOException", 0);
 			e.printStackTrace();
 			requestError.run("IOException");
 			return;
@@ -108,40 +136,43 @@ public class KeyAuth {
 
 		// Docs say that the response can only ever be 200, if this isn't the case then
 		// something has gone wrong
-		if (response.code() != 200) {
-			requestError.run("Response Code " + response.code());
-			response.close();
+		if (response.getCode() != 200) {
+			networkRecording.end("NON200", 0);
+			requestError.run("Response Code " + response.getCode());
 			return;
 		}
 
 		// Get response body
-		String signature = response.header("signature"); // For later, getting before response is closed
-		String jsonStr = null;
-		try {
-			jsonStr = response.body().string();
-			response.close();
-		} catch (IOException e) {
-			response.close();
-			e.printStackTrace();
-			requestError.run("IOException");
-			return;
-		}
+		String signature = response.getSignature();
+		String jsonStr = response.getBody();
+		networkRecording.end("success", jsonStr.length());
 
 		// Verify the response isn't tampered with
+		PhaseRecording verifyRecording = recorder.begin(AuthPhase.VERIFY_SIGNATURE, "init");
 		String hash = HashingUtils.hashHmacSha256(appSecret, jsonStr);
-		if (!signature.equals(hash)) {
+		if (!hash.equals(signature)) {
+			verifyRecording.end("Tampered", jsonStr.length());
+			authStates.publish(AuthState.TAMPERED_RESPONSE, "init");
 			tamperedResponse.run("Signature header \"" + signature + "\" didn't match \"" + hash + "\"");
 			return;
 		}
+		verifyRecording.end("success", jsonStr.length());
 
 		// Parse and handle response
-		JSONObject json = new JSONObject(jsonStr);
+		JSONObject json = parseJson("init", jsonStr);
 		if (json.getBoolean("success")) {
 			session = json.getString("sessionid");
+			authStates.publish(AuthState.INITIALIZED, json.optString("message"));
+
+			// Get the hwid ready in the background now that init is done, oshi is too slow
+			// to load while init is still waiting on the server
+			if (startupOptimized) {
+				HwidUtils.prefetchHwid();
+			}
 		} else {
 			if (json.getString("message").equalsIgnoreCase("invalidver")) {
 				try {
-					Desktop.getDesktop().browse(URI.create(json.getString("download")));
+					BrowserUtils.browse(json.getString("download"));
 				} catch (Exception e) {
 					onFailedInit.run("Failed to open update link, closing program");
 				}
@@ -181,11 +212,12 @@ public class KeyAuth {
 			return;
 		}
 
-		FormBody formBody = new FormBody.Builder().add("type", "register").add("username", username)
-				.add("pass", password).add("key", key).add("hwid", HwidUtils.getHwid()).add("sessionid", session)
-				.add("name", appName).add("ownerid", ownerId).build();
+		String hwid = getHwid("register");
+		Form form = buildRequest("register", () -> new Form.Builder().add("type", "register")
+				.add("username", username).add("pass", password).add("key", key).add("hwid", hwid)
+				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
 
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("register", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200": {
@@ -195,7 +227,7 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default: {
-				JSONObject json = new JSONObject(jsonStr);
+				JSONObject json = parseJson("register", jsonStr);
 				if (json.getBoolean("success")) {
 					checkSession(requestError, tamperedResponse, errorRegisteringAccount);
 					successfullyCreatedAccount.run(jsonStr);
@@ -231,11 +263,12 @@ public class KeyAuth {
 			return;
 		}
 
-		FormBody formBody = new FormBody.Builder().add("type", "login").add("username", username).add("pass", password)
-				.add("hwid", HwidUtils.getHwid()).add("sessionid", session).add("name", appName).add("ownerid", ownerId)
-				.build();
+		String hwid = getHwid("login");
+		Form form = buildRequest("login", () -> new Form.Builder().add("type", "login")
+				.add("username", username).add("pass", password).add("hwid", hwid).add("sessionid", session)
+				.add("name", appName).add("ownerid", ownerId).build());
 
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("login", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200": {
@@ -245,7 +278,7 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default: {
-				JSONObject json = new JSONObject(jsonStr);
+				JSONObject json = parseJson("login", jsonStr);
 				if (json.getBoolean("success")) {
 					checkSession(requestError, tamperedResponse, errorLoggingIn);
 					successfullyLoggedIn.run(jsonStr);
@@ -275,10 +308,10 @@ public class KeyAuth {
 			return;
 		}
 
-		FormBody formBody = new FormBody.Builder().add("type", "check").add("sessionid", session).add("name", appName)
-				.add("ownerid", ownerId).build();
+		Form form = buildRequest("check", () -> new Form.Builder().add("type", "check")
+				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
 
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("check", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200": {
@@ -288,10 +321,18 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default: {
-				JSONObject json = new JSONObject(jsonStr);
+				JSONObject json = parseJson("check", jsonStr);
 				if (json.getBoolean("success")) {
-					loggedIn = true;
+					if (!loggedIn) {
+						loggedIn = true;
+						userVariableCache.invalidateAll(); // Could be a different user now
+						authStates.publish(AuthState.LOGGED_IN, json.optString("message"));
+					}
 				} else {
+					if (loggedIn) {
+						loggedIn = false;
+						authStates.publish(AuthState.SESSION_EXPIRED, json.getString("message"));
+					}
 					errorLoggingIn.run(json.getString("message"));
 				}
 			}break;
@@ -316,10 +357,11 @@ public class KeyAuth {
 			return;
 		}
 		
-		FormBody formBody = new FormBody.Builder().add("type", "checkblacklist").add("hwid", HwidUtils.getHwid())
-				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build();
+		String hwid = getHwid("checkblacklist");
+		Form form = buildRequest("checkblacklist", () -> new Form.Builder().add("type", "checkblacklist")
+				.add("hwid", hwid).add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
 
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("checkblacklist", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200": {
@@ -329,8 +371,9 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default: {
-				JSONObject json = new JSONObject(jsonStr);
+				JSONObject json = parseJson("checkblacklist", jsonStr);
 				if (json.getBoolean("success")) {
+					authStates.publish(AuthState.BLACKLISTED, json.getString("message"));
 					blacklisted.run(json.getString("message"));
 				}
 			}break;
@@ -352,10 +395,10 @@ public class KeyAuth {
 			return;
 		}
 		
-		FormBody formBody = new FormBody.Builder().add("type", "file").add("fileid", fileId)
-				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build();
+		Form form = buildRequest("file", () -> new Form.Builder().add("type", "file").add("fileid", fileId)
+				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
 		
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("file", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200":{
@@ -365,13 +408,21 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default:{
-				JSONObject json = new JSONObject(jsonStr);
+				JSONObject json = parseJson("file", jsonStr);
 				if (json.getBoolean("success")){
 					
 					// Download file
-					FileOutputStream fos = new FileOutputStream(downloadFile);
-					fos.write(Hex.decodeHex(json.getString("contents").toCharArray()));
-					fos.close();
+					PhaseRecording writeRecording = recorder.begin(AuthPhase.WRITE_FILE, "file");
+					byte[] contents = Hex.decodeHex(json.getString("contents").toCharArray());
+					try {
+						FileOutputStream fos = new FileOutputStream(downloadFile);
+						fos.write(contents);
+						fos.close();
+					} catch (IOException e) {
+						writeRecording.end("IOException", contents.length);
+						throw e;
+					}
+					writeRecording.end("success", contents.length);
 					
 				}else {
 					requestError.run(json.getString("message"));
@@ -395,10 +446,11 @@ public class KeyAuth {
 			return;
 		}
 		
-		FormBody formBody = new FormBody.Builder().add("type", "ban").add("hwid", HwidUtils.getHwid())
-				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build();
+		String hwid = getHwid("ban");
+		Form form = buildRequest("ban", () -> new Form.Builder().add("type", "ban").add("hwid", hwid)
+				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
 		
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("ban", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200":{
@@ -408,8 +460,10 @@ public class KeyAuth {
 				tamperedResponse.run(jsonStr);
 			}break;
 			default:{
-				JSONObject json = new JSONObject(jsonStr);
-				if (!json.getBoolean("success")){
+				JSONObject json = parseJson("ban", jsonStr);
+				if (json.getBoolean("success")){
+					authStates.publish(AuthState.BANNED, json.optString("message"));
+				}else {
 					requestError.run(json.getString("message"));
 				}
 			}break;
@@ -438,10 +492,12 @@ public class KeyAuth {
 			return;
 		}
 		
-		FormBody formBody = new FormBody.Builder().add("type", "log").add("pcuser", pcName).add("message", message)
-				.add("sessionid", session).add("name", appName).add("ownerid", ownerId).build();
+		String pcUser = pcName;
+		Form form = buildRequest("log", () -> new Form.Builder().add("type", "log").add("pcuser", pcUser)
+				.add("message", message).add("sessionid", session).add("name", appName).add("ownerid", ownerId)
+				.build());
 		
-		String jsonStr = makeRequest(formBody);
+		String jsonStr = makeRequest("log", form);
 		switch (jsonStr) {
 			case "IOException":
 			case "NON200":{
@@ -457,59 +513,359 @@ public class KeyAuth {
 		
 	}
 	
+	/**
+	 * Gets app variables, variables that are already cached are returned without
+	 * sending a request and the rest are all requested at the same time
+	 * 
+	 * @param varIds               The ids of the variables to get
+	 * @param requestError         A ResponseHandler containing the code that runs
+	 *                             if there is an error while sending a request
+	 * @param tamperedResponse     A ResponseHandler containing the code that runs
+	 *                             if a response from the server is tampered with
+	 * @param errorGettingVariable A ResponseHandler containing the code that runs
+	 *                             if the server refuses to give a variable, it's
+	 *                             given "name: server message" so the variable
+	 *                             that failed is known
+	 * @param variables            A VariablesHandler that is given every variable
+	 *                             that was successfully fetched
+	 */
+	public void getVariables(Collection<String> varIds, ResponseHandler requestError,
+			ResponseHandler tamperedResponse, ResponseHandler errorGettingVariable, VariablesHandler variables) {
+		if (session == null) {
+			requestError.run("Not initialized");
+			return;
+		}
+
+		fetchVariables("var", "varid", "message", variableCache, varIds, requestError, tamperedResponse,
+				errorGettingVariable, variables);
+	}
+
+	/**
+	 * Gets a single app variable, the cache is used if the variable is already in
+	 * it
+	 * 
+	 * @param varId                The id of the variable to get
+	 * @param requestError         A ResponseHandler containing the code that runs
+	 *                             if there is an error while sending the request
+	 * @param tamperedResponse     A ResponseHandler containing the code that runs
+	 *                             if the response from the server is tampered with
+	 * @param errorGettingVariable A ResponseHandler containing the code that runs
+	 *                             if the server refuses to give the variable
+	 * @param variable             A ResponseHandler that is given the value of the
+	 *                             variable
+	 */
+	public void getVariable(String varId, ResponseHandler requestError, ResponseHandler tamperedResponse,
+			ResponseHandler errorGettingVariable, ResponseHandler variable) {
+		getVariables(Collections.singleton(varId), requestError, tamperedResponse, errorGettingVariable,
+				variables -> {
+					if (variables.containsKey(varId)) {
+						variable.run(variables.get(varId));
+					}
+				});
+	}
+
+	/**
+	 * Gets variables stored for the logged in user, variables that are already
+	 * cached are returned without sending a request and the rest are all requested
+	 * at the same time
+	 * 
+	 * @param names                The names of the variables to get
+	 * @param requestError         A ResponseHandler containing the code that runs
+	 *                             if there is an error while sending a request
+	 * @param tamperedResponse     A ResponseHandler containing the code that runs
+	 *                             if a response from the server is tampered with
+	 * @param errorGettingVariable A ResponseHandler containing the code that runs
+	 *                             if the server refuses to give a variable, it's
+	 *                             given "name: server message" so the variable
+	 *                             that failed is known
+	 * @param variables            A VariablesHandler that is given every variable
+	 *                             that was successfully fetched
+	 */
+	public void getUserVariables(Collection<String> names, ResponseHandler requestError,
+			ResponseHandler tamperedResponse, ResponseHandler errorGettingVariable, VariablesHandler variables) {
+		if (session == null) {
+			requestError.run("Not initialized");
+			return;
+		} else if (!loggedIn) {
+			requestError.run("Not logged in");
+			return;
+		}
+
+		fetchVariables("getvar", "var", "response", userVariableCache, names, requestError, tamperedResponse,
+				errorGettingVariable, variables);
+	}
+
+	/**
+	 * Gets a single variable stored for the logged in user, the cache is used if
+	 * the variable is already in it
+	 * 
+	 * @param name                 The name of the variable to get
+	 * @param requestError         A ResponseHandler containing the code that runs
+	 *                             if there is an error while sending the request
+	 * @param tamperedResponse     A ResponseHandler containing the code that runs
+	 *                             if the response from the server is tampered with
+	 * @param errorGettingVariable A ResponseHandler containing the code that runs
+	 *                             if the server refuses to give the variable
+	 * @param variable             A ResponseHandler that is given the value of the
+	 *                             variable
+	 */
+	public void getUserVariable(String name, ResponseHandler requestError, ResponseHandler tamperedResponse,
+			ResponseHandler errorGettingVariable, ResponseHandler variable) {
+		getUserVariables(Collections.singleton(name), requestError, tamperedResponse, errorGettingVariable,
+				variables -> {
+					if (variables.containsKey(name)) {
+						variable.run(variables.get(name));
+					}
+				});
+	}
+
+	/**
+	 * Sets a variable for the logged in user, the new value is written to the
+	 * cache once the server accepts it
+	 * 
+	 * @param name                 The name of the variable
+	 * @param data                 The value to set the variable to
+	 * @param requestError         A ResponseHandler containing the code that runs
+	 *                             if there is an error while sending the request
+	 * @param tamperedResponse     A ResponseHandler containing the code that runs
+	 *                             if the response from the server is tampered with
+	 * @param errorSettingVariable A ResponseHandler containing the code that runs
+	 *                             if the server refuses to set the variable
+	 */
+	public void setUserVariable(String name, String data, ResponseHandler requestError,
+			ResponseHandler tamperedResponse, ResponseHandler errorSettingVariable) {
+		if (session == null) {
+			requestError.run("Not initialized");
+			return;
+		} else if (!loggedIn) {
+			requestError.run("Not logged in");
+			return;
+		}
+
+		Form form = buildRequest("setvar", () -> new Form.Builder().add("type", "setvar").add("var", name)
+				.add("data", data).add("sessionid", session).add("name", appName).add("ownerid", ownerId).build());
+
+		String jsonStr = makeRequest("setvar", form);
+		switch (jsonStr) {
+			case "IOException":
+			case "NON200":{
+				requestError.run(jsonStr);
+			}break;
+			case "Tampered":{
+				tamperedResponse.run(jsonStr);
+			}break;
+			default:{
+				JSONObject json = parseJson("setvar", jsonStr);
+				if (json.getBoolean("success")) {
+					userVariableCache.put(name, data);
+				} else {
+					userVariableCache.invalidate(name);
+					errorSettingVariable.run(json.getString("message"));
+				}
+			}break;
+		}
+
+	}
+
+	/**
+	 * Gets variables from the cache, anything missing is requested from the server
+	 * all at once and then cached. The handlers are always ran on the calling
+	 * thread
+	 * 
+	 * @param requestType          The keyauth request type, var or getvar
+	 * @param nameField            The form field the variable name is sent in
+	 * @param valueField           The json field the value is returned in
+	 * @param cache                The cache the variables are stored in
+	 * @param names                The names of the variables to get
+	 * @param requestError         Runs if there is an error while sending a
+	 *                             request
+	 * @param tamperedResponse     Runs if a response from the server is tampered
+	 *                             with
+	 * @param errorGettingVariable Runs if the server refuses to give a variable,
+	 *                             given "name: server message"
+	 * @param variables            Given every variable that was successfully
+	 *                             fetched
+	 */
+	private void fetchVariables(String requestType, String nameField, String valueField, VariableCache cache,
+			Collection<String> names, ResponseHandler requestError, ResponseHandler tamperedResponse,
+			ResponseHandler errorGettingVariable, VariablesHandler variables) {
+		Map<String, String> values = new LinkedHashMap<>();
+		Map<String, CompletableFuture<String>> requests = new LinkedHashMap<>();
+
+		// Send a request for everything that isn't cached
+		for (String name : names) {
+			String cached = cache.get(name);
+			if (cached != null) {
+				values.put(name, cached);
+			} else if (!requests.containsKey(name)) {
+				Form form = buildRequest(requestType, () -> new Form.Builder().add("type", requestType)
+						.add(nameField, name).add("sessionid", session).add("name", appName).add("ownerid", ownerId)
+						.build());
+				requests.put(name, makeRequestAsync(requestType, form));
+			}
+		}
+
+		// Wait for the responses
+		for (Map.Entry<String, CompletableFuture<String>> request : requests.entrySet()) {
+			String jsonStr = request.getValue().join();
+			switch (jsonStr) {
+				case "IOException":
+				case "NON200":{
+					requestError.run(jsonStr);
+				}break;
+				case "Tampered":{
+					tamperedResponse.run(jsonStr);
+				}break;
+				default:{
+					JSONObject json = parseJson(requestType, jsonStr);
+					if (json.getBoolean("success")) {
+						String value = json.getString(valueField);
+						cache.put(request.getKey(), value);
+						values.put(request.getKey(), value);
+					} else {
+						errorGettingVariable.run(request.getKey() + ": " + json.getString("message"));
+					}
+				}break;
+			}
+		}
+
+		// Keep the order the variables were asked for in
+		Map<String, String> ordered = new LinkedHashMap<>();
+		for (String name : names) {
+			if (values.containsKey(name)) {
+				ordered.put(name, values.get(name));
+			}
+		}
+		variables.run(ordered);
+	}
+
 	/**
 	 * Makes a request to the auth server and checks it for tampering, the
 	 * initialize method doesn't use this because the tamper check is slightly
 	 * different for that response
 	 * 
-	 * @param requestBody The request payload to send
+	 * @param requestType The keyauth request type, used when recording the request
+	 * @param form        The request payload to send
 	 * @return The response json
 	 */
-	private String makeRequest(RequestBody requestBody) {
-		// Create and send the request
-		Request request = new Request.Builder().url(KEYAUTH_ENDPOINT).post(requestBody)
-				.addHeader("Content-Type", "application/x-www-form-urlencoded").build();
-
-		Call call = client.newCall(request);
-		Response response = null;
+	private String makeRequest(String requestType, Form form) {
+		// Send the request
+		PhaseRecording networkRecording = recorder.begin(AuthPhase.NETWORK, requestType);
+		TransportResponse response = null;
 		try {
-			response = call.execute();
+			response = transport.post(KEYAUTH_ENDPOINT, form);
 		} catch (IOException e) {
-			if (response != null)
-				response.close();
+			networkRecording.end("IOException", 0);
 			e.printStackTrace();
 			return "IOException";
 		}
 
+		return readResponse(requestType, response, networkRecording);
+	}
+
+	/**
+	 * The same as {@link #makeRequest(String, Form)} but the request is sent
+	 * without blocking the calling thread, so many can be in flight at once
+	 * 
+	 * @param requestType The keyauth request type, used when recording the request
+	 * @param form        The request payload to send
+	 * @return A future that completes with the response json
+	 */
+	private CompletableFuture<String> makeRequestAsync(String requestType, Form form) {
+		PhaseRecording networkRecording = recorder.begin(AuthPhase.NETWORK, requestType);
+		return transport.postAsync(KEYAUTH_ENDPOINT, form).handle((response, error) -> {
+			if (error != null) {
+				networkRecording.end("IOException", 0);
+				error.printStackTrace();
+				return "IOException";
+			}
+			return readResponse(requestType, response, networkRecording);
+		});
+	}
+
+	/**
+	 * Checks a response from the auth server for tampering
+	 * 
+	 * @param requestType      The keyauth request type, used when recording the
+	 *                         request
+	 * @param response         The response to check
+	 * @param networkRecording The recording of the network phase, ended once the
+	 *                         response has been checked for errors
+	 * @return The response json
+	 */
+	private String readResponse(String requestType, TransportResponse response, PhaseRecording networkRecording) {
 		// Docs say that the response can only ever be 200, if this isn't the case then
 		// something has gone wrong
-		if (response.code() != 200) {
-			response.close();
+		if (response.getCode() != 200) {
+			networkRecording.end("NON200", 0);
 			return "NON200";
 		}
 
 		// Get response body
-		String signature = response.header("signature"); // For later, getting before response is closed
-		String jsonStr = null;
-		try {
-			jsonStr = response.body().string();
-			response.close();
-		} catch (IOException e) {
-			response.close();
-			e.printStackTrace();
-			return "IOException";
-		}
+		String signature = response.getSignature();
+		String jsonStr = response.getBody();
+		networkRecording.end("success", jsonStr.length());
 
 		// Verify the response isn't tampered with
+		PhaseRecording verifyRecording = recorder.begin(AuthPhase.VERIFY_SIGNATURE, requestType);
 		String hash = HashingUtils.hashHmacSha256(guid + "-" + appSecret, jsonStr);
-		if (!jsonStr.isEmpty() && !signature.equals(hash)) {
+		if (!jsonStr.isEmpty() && !hash.equals(signature)) {
+			verifyRecording.end("Tampered", jsonStr.length());
+			authStates.publish(AuthState.TAMPERED_RESPONSE, requestType);
 			return "Tampered";
 		}
+		verifyRecording.end("success", jsonStr.length());
 
 		// Return
 		return jsonStr;
 	}
 
+	/**
+	 * Gets the hwid of the current machine and records how long it took
+	 * 
+	 * @param requestType The keyauth request type the hwid is needed for
+	 * @return The hwid
+	 */
+	private String getHwid(String requestType) {
+		PhaseRecording recording = recorder.begin(AuthPhase.HWID, requestType);
+		String hwid = HwidUtils.getHwid();
+		recording.end("success", hwid.length());
+		return hwid;
+	}
+
+	/**
+	 * Builds a request body and records how long it took
+	 * 
+	 * @param requestType The keyauth request type being built
+	 * @param builder     Builds the body
+	 * @return The built body
+	 */
+	private Form buildRequest(String requestType, Supplier<Form> builder) {
+		PhaseRecording recording = recorder.begin(AuthPhase.BUILD_REQUEST, requestType);
+		Form form = builder.get();
+		recording.end("success", form.contentLength());
+		return form;
+	}
+
+	/**
+	 * Parses a response from the auth server and records how long it took
+	 * 
+	 * @param requestType The keyauth request type the response is for
+	 * @param jsonStr     The response json
+	 * @return The parsed json
+	 */
+	private JSONObject parseJson(String requestType, String jsonStr) {
+		PhaseRecording recording = recorder.begin(AuthPhase.PARSE_JSON, requestType);
+		try {
+			JSONObject json = new JSONObject(jsonStr);
+			recording.end("success", jsonStr.length());
+			return json;
+		} catch (JSONException e) {
+			recording.end("JSONException", jsonStr.length());
+			throw e;
+		}
+	}
+
 	/**
 	 * @return the loggedIn
 	 */
@@ -530,6 +886,32 @@ public class KeyAuth {
 		return guid;
 	}
 	
+	/**
+	 * Auth state changes are published here so they can be reacted to without
+	 * polling {@link #isLoggedIn()} or {@link #getSession()}
+	 * 
+	 * @return the authStates
+	 */
+	public AuthStatePublisher getAuthStates() {
+		return authStates;
+	}
+
+	/**
+	 * @return the startupOptimized
+	 */
+	public boolean isStartupOptimized() {
+		return startupOptimized;
+	}
+
+	/**
+	 * @param startupOptimized If true then once initialize has succeeded the hwid
+	 *                         is worked out on a background thread, so the first
+	 *                         request that needs it doesn't have to wait on oshi
+	 */
+	public void setStartupOptimized(boolean startupOptimized) {
+		this.startupOptimized = startupOptimized;
+	}
+	
 	/**
 	 * @return the appName
 	 */
@@ -558,4 +940,18 @@ public class KeyAuth {
 		return session;
 	}
 	
+	/**
+	 * @return the cache used for app variables
+	 */
+	public VariableCache getVariableCache() {
+		return variableCache;
+	}
+	
+	/**
+	 * @return the cache used for the logged in user's variables
+	 */
+	public VariableCache getUserVariableCache() {
+		return userVariableCache;
+	}
+	
 }
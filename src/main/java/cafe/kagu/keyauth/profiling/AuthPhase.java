@@ -0,0 +1,42 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+/**
+ * @author DistastefulBannock
+ * The different phases of a request that get recorded by a {@link PhaseRecorder}
+ */
+public enum AuthPhase {
+	
+	/**
+	 * Collecting the hwid of the current machine
+	 */
+	HWID,
+	
+	/**
+	 * Building the request payload
+	 */
+	BUILD_REQUEST,
+	
+	/**
+	 * Sending the request and reading the response
+	 */
+	NETWORK,
+	
+	/**
+	 * Checking the hmac signature of the response
+	 */
+	VERIFY_SIGNATURE,
+	
+	/**
+	 * Parsing the response json
+	 */
+	PARSE_JSON,
+	
+	/**
+	 * Writing a downloaded file to disk
+	 */
+	WRITE_FILE;
+	
+}
@@ -0,0 +1,20 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+/**
+ * @author DistastefulBannock
+ * Records how long each phase of a request takes
+ */
+public interface PhaseRecorder {
+	
+	/**
+	 * Starts recording a phase
+	 * @param phase The phase that is starting
+	 * @param requestType The keyauth request type, init, login, file etc
+	 * @return A recording that must be ended once the phase is done
+	 */
+	public PhaseRecording begin(AuthPhase phase, String requestType);
+	
+}
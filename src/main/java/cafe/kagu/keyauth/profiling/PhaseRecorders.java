@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+/**
+ * @author DistastefulBannock
+ * Picks the recorder that the lib uses. On java 11+ this is backed by jdk
+ * flight recorder events, otherwise nothing is recorded
+ */
+public class PhaseRecorders {
+	
+	/**
+	 * A recording that does nothing
+	 */
+	public static final PhaseRecording NO_OP_RECORDING = (outcome, payloadSize) -> {};
+	
+	/**
+	 * A recorder that does nothing
+	 */
+	public static final PhaseRecorder NO_OP = (phase, requestType) -> NO_OP_RECORDING;
+	
+	private static final PhaseRecorder DEFAULT = loadDefault();
+	
+	/**
+	 * @return The jfr recorder if it's available, otherwise a recorder that does nothing
+	 */
+	public static PhaseRecorder getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Loads the jfr recorder reflectively so that java 8 never touches the java 11 classes
+	 * @return The recorder to use
+	 */
+	private static PhaseRecorder loadDefault() {
+		try {
+			return (PhaseRecorder) Class.forName("cafe.kagu.keyauth.profiling.JfrPhaseRecorder")
+					.getDeclaredConstructor().newInstance();
+		} catch (Throwable t) {
+			// Older java version or the jdk.jfr module is missing
+			return NO_OP;
+		}
+	}
+	
+}
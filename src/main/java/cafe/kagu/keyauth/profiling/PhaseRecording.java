@@ -0,0 +1,19 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+/**
+ * @author DistastefulBannock
+ * A single phase that is currently being recorded
+ */
+public interface PhaseRecording {
+	
+	/**
+	 * Ends the recording
+	 * @param outcome The outcome of the phase, success, IOException, Tampered etc
+	 * @param payloadSize The size in bytes of the data handled during the phase
+	 */
+	public void end(String outcome, long payloadSize);
+	
+}
@@ -0,0 +1,42 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+/**
+ * @author DistastefulBannock
+ * The auth state changes that get published by {@link AuthStatePublisher}
+ */
+public enum AuthState {
+	
+	/**
+	 * The app was initialized and has a session
+	 */
+	INITIALIZED,
+	
+	/**
+	 * The session is now that of a logged in user
+	 */
+	LOGGED_IN,
+	
+	/**
+	 * The session was logged in but the server no longer accepts it
+	 */
+	SESSION_EXPIRED,
+	
+	/**
+	 * The hwid or ip of the user is blacklisted
+	 */
+	BLACKLISTED,
+	
+	/**
+	 * The logged in user was banned
+	 */
+	BANNED,
+	
+	/**
+	 * A response from the server was tampered with
+	 */
+	TAMPERED_RESPONSE;
+	
+}
@@ -0,0 +1,52 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+/**
+ * @author DistastefulBannock
+ * A single auth state change
+ */
+public class AuthStateEvent {
+	
+	/**
+	 * @param state The new state
+	 * @param message The message from the server, or details about the change
+	 */
+	public AuthStateEvent(AuthState state, String message) {
+		this.state = state;
+		this.message = message;
+		this.timestamp = System.currentTimeMillis();
+	}
+	
+	private final AuthState state;
+	private final String message;
+	private final long timestamp;
+	
+	/**
+	 * @return the state
+	 */
+	public AuthState getState() {
+		return state;
+	}
+	
+	/**
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+	
+	/**
+	 * @return when the change happened, in epoch millis
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
+	@Override
+	public String toString() {
+		return state + " " + message;
+	}
+	
+}
@@ -0,0 +1,276 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * @author DistastefulBannock
+ * Publishes auth state changes to any number of subscribers. Publishing never
+ * blocks, each subscriber has its own bounded buffer that is drained on the
+ * executor. If a subscriber falls behind and its buffer fills up, the oldest
+ * buffered change is dropped so the subscriber always ends up on the latest
+ * state. New subscribers are sent the latest change straight away, and never
+ * get a change older than one they've already been sent
+ */
+public class AuthStatePublisher {
+
+	/**
+	 * Uses the common pool and a buffer of 16 changes per subscriber. If the
+	 * common pool only has one thread then a new thread is used for each drain
+	 * instead, so one slow subscriber can't hold up the rest
+	 */
+	public AuthStatePublisher() {
+		this(ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool() : runnable -> {
+			Thread thread = new Thread(runnable, "KeyAuth State");
+			thread.setDaemon(true);
+			thread.start();
+		}, 16);
+	}
+
+	/**
+	 * @param executor The executor subscribers are called on, this should run
+	 *                   tasks on another thread. A same thread executor works but
+	 *                   then subscribers are called on the thread publishing,
+	 *                   which is usually a request thread
+	 * @param bufferSize How many changes are buffered per subscriber before the oldest are dropped
+	 */
+	public AuthStatePublisher(Executor executor, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Buffer size must be positive");
+		}
+		this.executor = executor;
+		this.bufferSize = bufferSize;
+	}
+
+	private final Executor executor;
+	private final int bufferSize;
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final Object lock = new Object(); // Keeps replaying the latest change in order with publishes
+	private volatile AuthStateEvent latest = null; // Only written while holding lock
+	private volatile boolean closed = false; // Only written while holding lock
+
+	/**
+	 * @param subscriber The subscriber to send state changes to
+	 */
+	public void subscribe(AuthStateSubscriber subscriber) {
+		Subscription subscription = new Subscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		synchronized (lock) {
+			if (closed) {
+				subscription.complete();
+			} else if (subscription.cancelled) {
+				return;
+			} else {
+				subscriptions.add(subscription);
+				if (latest != null) {
+					subscription.offer(latest);
+				}
+			}
+		}
+		subscription.drainLater();
+	}
+
+	/**
+	 * Subscribes with no limit on how many changes can be sent. If onNext throws
+	 * then the stack trace is printed and nothing else is sent
+	 * @param onNext Ran for every state change
+	 */
+	public void subscribe(Consumer<AuthStateEvent> onNext) {
+		subscribe(new AuthStateSubscriber() {
+
+			@Override
+			public void onSubscribe(AuthStateSubscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(AuthStateEvent event) {
+				onNext.accept(event);
+			}
+
+		});
+	}
+
+	/**
+	 * Sends a state change to every subscriber without waiting for them
+	 * @param state The new state
+	 * @param message The message from the server, or details about the change
+	 */
+	public void publish(AuthState state, String message) {
+		AuthStateEvent event = new AuthStateEvent(state, message);
+		List<Subscription> offered;
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			latest = event;
+			offered = new ArrayList<>(subscriptions);
+			for (Subscription subscription : offered) {
+				subscription.offer(event);
+			}
+		}
+		for (Subscription subscription : offered) {
+			subscription.drainLater();
+		}
+	}
+
+	/**
+	 * Stops publishing, subscribers are completed once they've been sent everything already buffered
+	 */
+	public void close() {
+		List<Subscription> completed;
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			completed = new ArrayList<>(subscriptions);
+			for (Subscription subscription : completed) {
+				subscription.complete();
+			}
+			subscriptions.clear();
+		}
+		for (Subscription subscription : completed) {
+			subscription.drainLater();
+		}
+	}
+
+	/**
+	 * @return The latest state change, or null if nothing has been published yet
+	 */
+	public AuthStateEvent getLatest() {
+		return latest;
+	}
+
+	/**
+	 * @return How many subscribers there are
+	 */
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * @author DistastefulBannock
+	 * Buffers changes for a single subscriber and sends them when it has demand
+	 */
+	private class Subscription implements AuthStateSubscription {
+
+		private Subscription(AuthStateSubscriber subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		private final AuthStateSubscriber subscriber;
+		private final ArrayDeque<AuthStateEvent> buffer = new ArrayDeque<>();
+		private final AtomicInteger wip = new AtomicInteger();
+		private long demand = 0; // Guarded by buffer
+		private Throwable error = null; // Guarded by buffer
+		private boolean completed = false; // Guarded by buffer
+		private volatile boolean cancelled = false;
+
+		@Override
+		public void request(long n) {
+			synchronized (buffer) {
+				if (n <= 0) {
+					error = new IllegalArgumentException("Requested " + n + " changes, must be positive");
+				} else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n; // Don't overflow
+				}
+			}
+			drainLater();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			subscriptions.remove(this);
+		}
+
+		/**
+		 * Buffers a change, dropping the oldest buffered change if the buffer is
+		 * full. Doesn't send it, call drainLater once the publisher lock is released
+		 * @param event The change
+		 */
+		private void offer(AuthStateEvent event) {
+			synchronized (buffer) {
+				if (buffer.size() >= bufferSize) {
+					buffer.poll();
+				}
+				buffer.offer(event);
+			}
+		}
+
+		/**
+		 * Completes the subscriber once the buffer is drained. Like offer this
+		 * needs a drainLater after the publisher lock is released
+		 */
+		private void complete() {
+			synchronized (buffer) {
+				completed = true;
+			}
+		}
+
+		/**
+		 * Makes sure a drain is running on the executor, never called while holding
+		 * the publisher lock so the executor can't run subscribers inside it
+		 */
+		private void drainLater() {
+			if (wip.getAndIncrement() == 0) {
+				executor.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Sends buffered changes to the subscriber, only ever ran by one thread at a time
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				while (!cancelled) {
+					AuthStateEvent event;
+					Throwable error;
+					boolean done;
+					synchronized (buffer) {
+						error = this.error;
+						done = buffer.isEmpty() && completed;
+						event = error != null || done || demand == 0 ? null : buffer.poll();
+						if (event != null && demand != Long.MAX_VALUE) {
+							demand--;
+						}
+					}
+
+					// Subscribers are never called while holding the lock
+					if (error != null) {
+						cancel();
+						subscriber.onError(error);
+						return;
+					} else if (done) {
+						cancel();
+						subscriber.onComplete();
+						return;
+					} else if (event == null) {
+						break;
+					}
+					try {
+						subscriber.onNext(event);
+					} catch (Throwable t) {
+						cancel();
+						subscriber.onError(t);
+						return;
+					}
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+/**
+ * @author DistastefulBannock
+ * Receives auth state changes from a {@link AuthStatePublisher}, works the same
+ * way as java.util.concurrent.Flow.Subscriber so it can be used on java 8
+ */
+public interface AuthStateSubscriber {
+	
+	/**
+	 * Called once before anything else, nothing is sent until
+	 * {@link AuthStateSubscription#request(long)} is called
+	 * @param subscription The subscription
+	 */
+	public void onSubscribe(AuthStateSubscription subscription);
+	
+	/**
+	 * @param event The next state change
+	 */
+	public void onNext(AuthStateEvent event);
+	
+	/**
+	 * Called if the subscription failed, nothing else is sent after this. This
+	 * includes onNext throwing. Prints the stack trace unless overridden
+	 * @param throwable The reason it failed
+	 */
+	public default void onError(Throwable throwable) {
+		throwable.printStackTrace();
+	}
+	
+	/**
+	 * Called once the publisher is closed, nothing else is sent after this
+	 */
+	public default void onComplete() {
+		
+	}
+	
+}
@@ -0,0 +1,24 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+/**
+ * @author DistastefulBannock
+ * Links a subscriber to a {@link AuthStatePublisher}, works the same way as
+ * java.util.concurrent.Flow.Subscription so it can be used on java 8
+ */
+public interface AuthStateSubscription {
+	
+	/**
+	 * Lets the publisher send more state changes
+	 * @param n How many more state changes can be sent, Long.MAX_VALUE for no limit
+	 */
+	public void request(long n);
+	
+	/**
+	 * Stops sending state changes to the subscriber
+	 */
+	public void cancel();
+	
+}
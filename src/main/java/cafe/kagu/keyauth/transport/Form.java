@@ -0,0 +1,99 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author DistastefulBannock
+ * A url encoded form, encoded once when it's built so every transport sends
+ * the exact same bytes
+ */
+public class Form {
+	
+	/**
+	 * The content type every form is sent with
+	 */
+	public static final String CONTENT_TYPE = "application/x-www-form-urlencoded";
+	
+	private Form(Map<String, String> fields, String encoded) {
+		this.fields = fields;
+		this.encoded = encoded;
+	}
+	
+	private final Map<String, String> fields;
+	private final String encoded;
+	
+	/**
+	 * @return the fields
+	 */
+	public Map<String, String> getFields() {
+		return fields;
+	}
+	
+	/**
+	 * @return the url encoded form
+	 */
+	public String getEncoded() {
+		return encoded;
+	}
+	
+	/**
+	 * @return The size of the encoded form in bytes
+	 */
+	public long contentLength() {
+		return encoded.length(); // Url encoding only ever outputs ascii
+	}
+	
+	/**
+	 * @author DistastefulBannock
+	 * Builds forms
+	 */
+	public static class Builder {
+		
+		private final Map<String, String> fields = new LinkedHashMap<>();
+		
+		/**
+		 * @param name The name of the field
+		 * @param value The value of the field
+		 * @return This builder
+		 */
+		public Builder add(String name, String value) {
+			fields.put(name, value);
+			return this;
+		}
+		
+		/**
+		 * @return The built form
+		 */
+		public Form build() {
+			StringBuilder encoded = new StringBuilder();
+			for (Map.Entry<String, String> field : fields.entrySet()) {
+				if (encoded.length() > 0) {
+					encoded.append('&');
+				}
+				encoded.append(encode(field.getKey())).append('=').append(encode(field.getValue()));
+			}
+			return new Form(Collections.unmodifiableMap(new LinkedHashMap<>(fields)), encoded.toString());
+		}
+		
+		/**
+		 * @param str The string to encode
+		 * @return The url encoded string
+		 */
+		private static String encode(String str) {
+			try {
+				return URLEncoder.encode(str, "UTF-8");
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e); // Every jvm has to support utf-8
+			}
+		}
+		
+	}
+	
+}
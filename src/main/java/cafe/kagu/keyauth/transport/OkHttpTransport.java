@@ -0,0 +1,120 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * @author DistastefulBannock
+ * Sends requests with OkHttp, used when the jdk http client isn't available
+ */
+public class OkHttpTransport implements Transport {
+	
+	/**
+	 * Uses a new OkHttp client
+	 */
+	public OkHttpTransport() {
+		this(new OkHttpClient.Builder().addNetworkInterceptor(OkHttpTransport::refuseDowngrade).build());
+		
+		// Every variable in a bulk fetch is sent at once so the per host limit is raised to the overall limit
+		client.dispatcher().setMaxRequestsPerHost(client.dispatcher().getMaxRequests());
+	}
+	
+	/**
+	 * @param client The OkHttp client to send requests with
+	 */
+	public OkHttpTransport(OkHttpClient client) {
+		this.client = client;
+	}
+	
+	private static final MediaType FORM_MEDIA_TYPE = MediaType.get(Form.CONTENT_TYPE);
+	private final OkHttpClient client;
+	
+	@Override
+	public TransportResponse post(String url, Form form) throws IOException {
+		try (Response response = client.newCall(createRequest(url, form)).execute()) {
+			return readResponse(response);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<TransportResponse> postAsync(String url, Form form) {
+		CompletableFuture<TransportResponse> future = new CompletableFuture<>();
+		client.newCall(createRequest(url, form)).enqueue(new Callback() {
+			
+			@Override
+			public void onFailure(Call call, IOException e) {
+				future.completeExceptionally(e);
+			}
+			
+			@Override
+			public void onResponse(Call call, Response response) {
+				// OkHttp doesn't call onFailure if this throws, so anything thrown has to
+				// complete the future or whoever is waiting on it hangs forever
+				try {
+					future.complete(readResponse(response));
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				} finally {
+					response.close();
+				}
+			}
+			
+		});
+		return future;
+	}
+	
+	/**
+	 * Stops OkHttp from following redirects from https to http, the same as the
+	 * jdk client's Redirect.NORMAL. OkHttp can only refuse every redirect that
+	 * changes scheme, so the location is removed instead which makes OkHttp return
+	 * the redirect as the response
+	 * 
+	 * @param chain The request chain
+	 * @return The response, without its location if it's a redirect to http
+	 * @throws IOException Thrown if the request fails
+	 */
+	private static Response refuseDowngrade(Interceptor.Chain chain) throws IOException {
+		Response response = chain.proceed(chain.request());
+		String location = response.header("Location");
+		if (response.isRedirect() && location != null && chain.request().isHttps()) {
+			HttpUrl target = chain.request().url().resolve(location);
+			if (target != null && !target.isHttps()) {
+				return response.newBuilder().removeHeader("Location").build();
+			}
+		}
+		return response;
+	}
+	
+	/**
+	 * @param url The url to post to
+	 * @param form The form to send
+	 * @return The OkHttp request
+	 */
+	private Request createRequest(String url, Form form) {
+		return new Request.Builder().url(url).post(RequestBody.create(form.getEncoded(), FORM_MEDIA_TYPE))
+				.addHeader("Content-Type", Form.CONTENT_TYPE).build();
+	}
+	
+	/**
+	 * @param response The response to read, the caller has to close it
+	 * @return The read response
+	 * @throws IOException Thrown if the body couldn't be read
+	 */
+	private TransportResponse readResponse(Response response) throws IOException {
+		return new TransportResponse(response.code(), response.header("signature"), response.body().string());
+	}
+	
+}
@@ -0,0 +1,39 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author DistastefulBannock
+ * Sends requests to the auth server. Implementations only move bytes, checking
+ * the response for tampering is always done by the caller so every transport
+ * behaves the same. Redirects are followed, including from http to https,
+ * except from https to http where the redirect itself is returned as the
+ * response. A post turns into a get on a 301, 302 or 303 and stays a post on a
+ * 307 or 308
+ */
+public interface Transport {
+	
+	/**
+	 * Sends a form to the url and reads the whole response
+	 * @param url The url to post to
+	 * @param form The form to send
+	 * @return The response
+	 * @throws IOException Thrown if the request couldn't be sent or the response couldn't be read
+	 */
+	public TransportResponse post(String url, Form form) throws IOException;
+	
+	/**
+	 * Sends a form to the url without blocking the calling thread
+	 * @param url The url to post to
+	 * @param form The form to send
+	 * @return A future that completes with the response, or completes exceptionally
+	 *         with an IOException if the request couldn't be sent or the response
+	 *         couldn't be read
+	 */
+	public CompletableFuture<TransportResponse> postAsync(String url, Form form);
+	
+}
@@ -0,0 +1,47 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+/**
+ * @author DistastefulBannock
+ * A fully read response from the auth server
+ */
+public class TransportResponse {
+	
+	/**
+	 * @param code The http status code
+	 * @param signature The signature header, or null if there wasn't one
+	 * @param body The response body
+	 */
+	public TransportResponse(int code, String signature, String body) {
+		this.code = code;
+		this.signature = signature;
+		this.body = body;
+	}
+	
+	private final int code;
+	private final String signature, body;
+	
+	/**
+	 * @return the code
+	 */
+	public int getCode() {
+		return code;
+	}
+	
+	/**
+	 * @return the signature
+	 */
+	public String getSignature() {
+		return signature;
+	}
+	
+	/**
+	 * @return the body
+	 */
+	public String getBody() {
+		return body;
+	}
+	
+}
@@ -0,0 +1,44 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+/**
+ * @author DistastefulBannock
+ * Picks the transport that the lib uses by default. On java 11+ this is the jdk
+ * http client, otherwise OkHttp is used and has to be on the classpath
+ */
+public class Transports {
+	
+	/**
+	 * @return The shared default transport, created the first time it's needed
+	 */
+	public static Transport getDefault() {
+		return DefaultHolder.DEFAULT;
+	}
+	
+	/**
+	 * Loads the jdk transport reflectively so that java 8 never touches the java 11 classes
+	 * @return The transport to use
+	 */
+	private static Transport loadDefault() {
+		try {
+			return (Transport) Class.forName("cafe.kagu.keyauth.transport.HttpClientTransport")
+					.getDeclaredConstructor().newInstance();
+		} catch (Throwable t) {
+			// Older java version or the java.net.http module is missing
+			return new OkHttpTransport();
+		}
+	}
+	
+	/**
+	 * @author DistastefulBannock
+	 * Holds the default transport so it's only created when it's first used
+	 */
+	private static class DefaultHolder {
+		
+		private static final Transport DEFAULT = loadDefault();
+		
+	}
+	
+}
@@ -0,0 +1,24 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.utils;
+
+import java.awt.Desktop;
+import java.net.URI;
+
+/**
+ * @author DistastefulBannock
+ * Opens links in the user's browser. Kept out of the KeyAuth class so awt is
+ * only ever loaded if a link actually needs to be opened
+ */
+public class BrowserUtils {
+	
+	/**
+	 * @param url The link to open
+	 * @throws Exception Thrown if the link couldn't be opened
+	 */
+	public static void browse(String url) throws Exception {
+		Desktop.getDesktop().browse(URI.create(url));
+	}
+	
+}
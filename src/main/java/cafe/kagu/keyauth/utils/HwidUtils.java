@@ -17,10 +17,42 @@ import oshi.hardware.HWDiskStore;
  */
 public class HwidUtils {
 	
+	private static volatile String hwid = null;
+	
 	/**
-	 * @return The hwid for the current machine
+	 * @return The hwid for the current machine, only worked out the first time it's needed
 	 */
 	public static String getHwid() {
+		String hwid = HwidUtils.hwid;
+		if (hwid == null) {
+			synchronized (HwidUtils.class) {
+				hwid = HwidUtils.hwid;
+				if (hwid == null) {
+					hwid = createHwid();
+					HwidUtils.hwid = hwid;
+				}
+			}
+		}
+		return hwid;
+	}
+	
+	/**
+	 * Works out the hwid on a background thread so it's ready by the time a request needs it
+	 */
+	public static void prefetchHwid() {
+		if (hwid != null) {
+			return;
+		}
+		Thread thread = new Thread(HwidUtils::getHwid, "KeyAuth Hwid");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Loading oshi is slow, this should only ever be called once
+	 * @return The hwid for the current machine
+	 */
+	private static String createHwid() {
 		String hwid = "";
 		
 		SystemInfo systemInfo = new SystemInfo();
@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author DistastefulBannock
+ * Caches variables fetched from the auth server so repeat reads don't need to
+ * send another request
+ */
+public class VariableCache {
+	
+	/**
+	 * @param ttl How long a variable stays cached for, zero or less means forever
+	 * @param unit The unit of the ttl
+	 */
+	public VariableCache(long ttl, TimeUnit unit) {
+		setTtl(ttl, unit);
+	}
+	
+	private final Map<String, CachedVariable> variables = new ConcurrentHashMap<>();
+	private volatile long ttlNanos;
+	
+	/**
+	 * @param name The name of the variable
+	 * @return The cached value, or null if it isn't cached or has expired
+	 */
+	public String get(String name) {
+		CachedVariable variable = variables.get(name);
+		if (variable == null) {
+			return null;
+		}
+		if (ttlNanos > 0 && System.nanoTime() - variable.cachedAt > ttlNanos) {
+			variables.remove(name, variable);
+			return null;
+		}
+		return variable.value;
+	}
+	
+	/**
+	 * @param name The name of the variable
+	 * @param value The value to cache
+	 */
+	public void put(String name, String value) {
+		variables.put(name, new CachedVariable(value, System.nanoTime()));
+	}
+	
+	/**
+	 * Removes a variable from the cache so the next read fetches it again
+	 * @param name The name of the variable
+	 */
+	public void invalidate(String name) {
+		variables.remove(name);
+	}
+	
+	/**
+	 * Removes every variable from the cache
+	 */
+	public void invalidateAll() {
+		variables.clear();
+	}
+	
+	/**
+	 * @param ttl How long a variable stays cached for, zero or less means forever
+	 * @param unit The unit of the ttl
+	 */
+	public void setTtl(long ttl, TimeUnit unit) {
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+	
+	/**
+	 * @author DistastefulBannock
+	 * A value along with when it was cached
+	 */
+	private static class CachedVariable {
+		
+		private final String value;
+		private final long cachedAt;
+		
+		private CachedVariable(String value, long cachedAt) {
+			this.value = value;
+			this.cachedAt = cachedAt;
+		}
+		
+	}
+	
+}
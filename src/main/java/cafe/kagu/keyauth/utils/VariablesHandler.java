@@ -0,0 +1,19 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.utils;
+
+import java.util.Map;
+
+/**
+ * @author DistastefulBannock
+ * Receives the variables fetched from the auth server
+ */
+public interface VariablesHandler {
+	
+	/**
+	 * @param variables The variables that were fetched, mapped from their name to their value
+	 */
+	public void run(Map<String, String> variables);
+	
+}
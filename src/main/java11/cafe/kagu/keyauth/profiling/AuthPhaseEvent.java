@@ -0,0 +1,38 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author DistastefulBannock
+ * Flight recorder event committed for each phase of a keyauth request
+ */
+@Name("cafe.kagu.keyauth.AuthPhase")
+@Label("KeyAuth Phase")
+@Category("KeyAuth")
+@Description("A single phase of a request made to the keyauth api")
+@StackTrace(false)
+class AuthPhaseEvent extends Event {
+	
+	@Label("Phase")
+	String phase;
+	
+	@Label("Request Type")
+	String requestType;
+	
+	@Label("Outcome")
+	String outcome;
+	
+	@Label("Payload Size")
+	@DataAmount
+	long payloadSize;
+	
+}
@@ -0,0 +1,48 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.profiling;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * @author DistastefulBannock
+ * Records phases as {@link AuthPhaseEvent}s, only loaded on java 11+ by {@link PhaseRecorders}
+ */
+public class JfrPhaseRecorder implements PhaseRecorder {
+	
+	private volatile EventType eventType = null; // Only looked up once flight recorder has been started
+	
+	@Override
+	public PhaseRecording begin(AuthPhase phase, String requestType) {
+		// Looking up the event type boots flight recorder, so don't until something else has
+		EventType eventType = this.eventType;
+		if (eventType == null) {
+			if (!FlightRecorder.isInitialized()) {
+				return PhaseRecorders.NO_OP_RECORDING;
+			}
+			eventType = EventType.getEventType(AuthPhaseEvent.class);
+			this.eventType = eventType;
+		}
+		
+		// Don't allocate anything when nobody is recording
+		if (!eventType.isEnabled()) {
+			return PhaseRecorders.NO_OP_RECORDING;
+		}
+		
+		AuthPhaseEvent event = new AuthPhaseEvent();
+		event.begin();
+		return (outcome, payloadSize) -> {
+			event.end();
+			if (event.shouldCommit()) {
+				event.phase = phase.name();
+				event.requestType = requestType;
+				event.outcome = outcome;
+				event.payloadSize = payloadSize;
+				event.commit();
+			}
+		};
+	}
+	
+}
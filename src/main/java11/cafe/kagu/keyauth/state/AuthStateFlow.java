@@ -0,0 +1,56 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.state;
+
+import java.util.concurrent.Flow;
+
+/**
+ * @author DistastefulBannock
+ * Adapts an {@link AuthStatePublisher} to java.util.concurrent.Flow, only usable on java 11+
+ */
+public class AuthStateFlow {
+	
+	/**
+	 * @param publisher The publisher to adapt
+	 * @return A flow publisher that subscribes to the auth state publisher
+	 */
+	public static Flow.Publisher<AuthStateEvent> toFlowPublisher(AuthStatePublisher publisher) {
+		return subscriber -> publisher.subscribe(new AuthStateSubscriber() {
+			
+			@Override
+			public void onSubscribe(AuthStateSubscription subscription) {
+				subscriber.onSubscribe(new Flow.Subscription() {
+					
+					@Override
+					public void request(long n) {
+						subscription.request(n);
+					}
+					
+					@Override
+					public void cancel() {
+						subscription.cancel();
+					}
+					
+				});
+			}
+			
+			@Override
+			public void onNext(AuthStateEvent event) {
+				subscriber.onNext(event);
+			}
+			
+			@Override
+			public void onError(Throwable throwable) {
+				subscriber.onError(throwable);
+			}
+			
+			@Override
+			public void onComplete() {
+				subscriber.onComplete();
+			}
+			
+		});
+	}
+	
+}
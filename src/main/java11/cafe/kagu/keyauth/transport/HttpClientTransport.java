@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author DistastefulBannock
+ * Sends requests with the jdk http client over http/2, only loaded on java 11+
+ * by {@link Transports}
+ */
+public class HttpClientTransport implements Transport {
+	
+	/**
+	 * Uses a new http client with the same timeouts and redirect rules as OkHttp's defaults
+	 */
+	public HttpClientTransport() {
+		this(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(TIMEOUT)
+				.followRedirects(HttpClient.Redirect.NORMAL).build());
+	}
+	
+	/**
+	 * @param client The http client to send requests with
+	 */
+	public HttpClientTransport(HttpClient client) {
+		this.client = client;
+	}
+	
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+	private final HttpClient client;
+	
+	@Override
+	public TransportResponse post(String url, Form form) throws IOException {
+		try {
+			return readResponse(client.send(createRequest(url, form), BodyHandlers.ofString()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the response");
+		}
+	}
+	
+	@Override
+	public CompletableFuture<TransportResponse> postAsync(String url, Form form) {
+		return client.sendAsync(createRequest(url, form), BodyHandlers.ofString()).thenApply(this::readResponse);
+	}
+	
+	/**
+	 * @param url The url to post to
+	 * @param form The form to send
+	 * @return The jdk request
+	 */
+	private HttpRequest createRequest(String url, Form form) {
+		return HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).header("Content-Type", Form.CONTENT_TYPE)
+				.POST(BodyPublishers.ofString(form.getEncoded())).build();
+	}
+	
+	/**
+	 * @param response The response to read
+	 * @return The read response
+	 */
+	private TransportResponse readResponse(HttpResponse<String> response) {
+		return new TransportResponse(response.statusCode(), response.headers().firstValue("signature").orElse(null),
+				response.body());
+	}
+	
+}
@@ -0,0 +1,164 @@
+/**
+ * 
+ */
+package cafe.kagu.keyauth;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import cafe.kagu.keyauth.transport.Form;
+import cafe.kagu.keyauth.transport.Transport;
+import cafe.kagu.keyauth.transport.TransportResponse;
+import cafe.kagu.keyauth.transport.Transports;
+import cafe.kagu.keyauth.utils.HashingUtils;
+
+/**
+ * @author DistastefulBannock
+ * Measures how long it takes a fresh jvm to get its first responses from the
+ * auth server and how many classes were loaded to get there. Requests go to a
+ * local server that signs its responses the same way keyauth does. Run with
+ * "optimized" as the first arg to turn on the startup optimized mode. Also used
+ * by generate-classlist.sh to generate the shipped AppCDS class list. Lives in
+ * the test sources so it and the local server aren't packaged in the jar
+ */
+public class StartupBenchmark {
+
+	private static final String APP_SECRET = "benchmark";
+	private static volatile String encKey = null;
+
+	/**
+	 * Program entry point
+	 * @param args Program args
+	 * @throws Exception Thrown if the local server can't be started
+	 */
+	public static void main(String[] args) throws Exception {
+		boolean optimized = args.length > 0 && args[0].equalsIgnoreCase("optimized");
+
+		// Start the local server before measuring so its classes aren't counted
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", StartupBenchmark::handle);
+		server.start();
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+		long start = System.nanoTime();
+		int startClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+		KeyAuth keyAuth = new KeyAuth("owner", "app", APP_SECRET, "1.0", new LocalTransport(url));
+		keyAuth.setStartupOptimized(optimized);
+		keyAuth.initialize(msg -> {
+			System.out.println("Failed " + msg);
+		}, msg -> {
+			System.out.println("Error " + msg);
+		}, msg -> {
+			System.out.println("Tampered response " + msg);
+		});
+		report("initialize", start, startClasses);
+
+		keyAuth.login("user", "pass", msg -> {
+			System.out.println("Error " + msg);
+		}, msg -> {
+			System.out.println("Tampered response " + msg);
+		}, msg -> {
+			System.out.println("Error logging in " + msg);
+		}, msg -> {});
+		report("login", start, startClasses);
+
+		// Not stopping the server first, closing the connection under the client races
+		// with exiting and would change the generated class list between runs
+		System.exit(0);
+	}
+
+	/**
+	 * Prints how long it's been and how many classes have been loaded since the benchmark started
+	 * @param step The step that just finished
+	 * @param start When the benchmark started
+	 * @param startClasses How many classes were loaded when the benchmark started
+	 */
+	private static void report(String step, long start, int startClasses) {
+		System.out.println(step + ": " + (System.nanoTime() - start) / 1000000 + "ms, "
+				+ (ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() - startClasses) + " classes loaded");
+	}
+
+	/**
+	 * Answers a request the same way keyauth would
+	 * @param exchange The request
+	 * @throws IOException Thrown if the request can't be read or answered
+	 */
+	private static void handle(HttpExchange exchange) throws IOException {
+		Map<String, String> form = new HashMap<>();
+		for (String field : readAll(exchange.getRequestBody()).split("&")) {
+			String[] pair = field.split("=", 2);
+			form.put(URLDecoder.decode(pair[0], "UTF-8"), pair.length > 1 ? URLDecoder.decode(pair[1], "UTF-8") : "");
+		}
+
+		// Init is signed with just the secret, everything after is signed with the enckey too
+		String json, key;
+		if (form.get("type").equals("init")) {
+			encKey = form.get("enckey");
+			json = "{\"success\":true,\"sessionid\":\"benchmark\"}";
+			key = APP_SECRET;
+		} else {
+			json = "{\"success\":true,\"message\":\"ok\"}";
+			key = encKey + "-" + APP_SECRET;
+		}
+
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("signature", HashingUtils.hashHmacSha256(key, json));
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * @param in The stream to read
+	 * @return Everything in the stream as a string
+	 * @throws IOException Thrown if the stream can't be read
+	 */
+	private static String readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @author DistastefulBannock
+	 * Sends every request to the local server using the default transport
+	 */
+	private static class LocalTransport implements Transport {
+
+		private LocalTransport(String url) {
+			this.url = url;
+		}
+
+		private final String url;
+
+		@Override
+		public TransportResponse post(String url, Form form) throws IOException {
+			return Transports.getDefault().post(this.url, form);
+		}
+
+		@Override
+		public CompletableFuture<TransportResponse> postAsync(String url, Form form) {
+			return Transports.getDefault().postAsync(this.url, form);
+		}
+
+	}
+
+}